@@ -2,10 +2,16 @@ package com.example.controller;
 
 // Jakarta EEのサーブレットAPIをインポート
 import java.io.IOException;
+import java.util.Date;
 import java.util.logging.Logger;
 
+import com.example.model.dao.DatabaseOverloadException;
+import com.example.model.dao.Deadline;
 import com.example.model.service.User;
 import com.example.model.service.UserService;
+import com.example.monitoring.ForwardEvent;
+import com.example.monitoring.RouteContext;
+import com.example.monitoring.RouteEvent;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
@@ -26,6 +32,15 @@ public class ControlServlet extends HttpServlet {
     // ユーザー関連のビジネスロジックを処理するサービス層のインスタンス
     private final UserService userService = new UserService();
     
+    // セッションの有効期限が無期限の場合に使用する保存期間（ミリ秒）
+    private static final long DEFAULT_SESSION_TTL_MILLIS = 30 * 60 * 1000L;
+    
+    // ログイン処理の処理期限（ミリ秒）
+    private static final long LOGIN_DEADLINE_MILLIS = 2000;
+    
+    // 過負荷時にクライアントへ再試行を促すまでの秒数
+    private static final String RETRY_AFTER_SECONDS = "1";
+    
     /**
      * サーブレットの初期化メソッド
      * サーブレットが最初にロードされたときに1度だけ呼ばれます
@@ -36,9 +51,64 @@ public class ControlServlet extends HttpServlet {
         super.init();
         // UserServiceを通じてデータベースを初期化
         userService.initializeDatabase();
+        
+        // UserServiceを通じてセッションストアを開く（失敗してもアプリケーションは継続）
+        userService.initializeSessionStore();
         LOGGER.info("ControlServlet: 初期化完了");
     }
     
+    /**
+     * サーブレットの終了処理
+     * 再デプロイや停止時にセッションストアをディスクに書き出して閉じます
+     */
+    @Override
+    public void destroy() {
+        userService.shutdownSessionStore();
+        userService.shutdownDatabase();
+        super.destroy();
+    }
+    
+    /**
+     * 全てのHTTPリクエストの入口
+     * ルート処理全体をJFRのRouteEventとして記録し、処理中のルートをRouteContextに設定します
+     * JFRイベントは記録が無効な場合shouldCommit()がfalseとなり、フィールドの設定やコミットは行われません
+     * 
+     * @param request HTTPリクエストオブジェクト
+     * @param response HTTPレスポンスオブジェクト
+     * @throws ServletException サーブレット例外
+     * @throws IOException 入出力例外
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        String route = routeOf(request);
+        RouteContext.set(route);
+        
+        RouteEvent event = new RouteEvent();
+        event.begin();
+        boolean completed = false;
+        try {
+            super.service(request, response);
+            completed = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.route = route;
+                event.method = request.getMethod();
+                if (completed) {
+                    event.status = response.getStatus();
+                    event.outcome = outcomeOf(event.status);
+                } else {
+                    // 例外時はレスポンスのステータスがまだ200のままのため、コンテナが返す500を記録
+                    event.status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                    event.outcome = "error";
+                }
+                event.commit();
+            }
+            RouteContext.clear();
+        }
+    }
+    
     /**
      * HTTP GETリクエストの処理
      * URLパスに基づいて適切な処理メソッドを呼び出します
@@ -51,6 +121,9 @@ public class ControlServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
+        // 再起動前のセッションの復元、または有効期限の延長
+        syncPersistedSession(request);
+        
         // URLパスから処理を判断
         String pathInfo = request.getPathInfo();
         
@@ -103,7 +176,7 @@ public class ControlServlet extends HttpServlet {
     private void showIndex(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
         LOGGER.info("トップページを表示");
-        request.getRequestDispatcher("/WEB-INF/views/index.jsp").forward(request, response);
+        forward(request, response, "/WEB-INF/views/index.jsp");
     }
     
     /**
@@ -123,7 +196,7 @@ public class ControlServlet extends HttpServlet {
         }
         
         // ログイン画面（JSP）を表示
-        request.getRequestDispatcher("/WEB-INF/views/login.jsp").forward(request, response);
+        forward(request, response, "/WEB-INF/views/login.jsp");
     }
     
     /**
@@ -132,6 +205,9 @@ public class ControlServlet extends HttpServlet {
      */
     private void processLogin(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
+        // リクエスト受付時点から処理期限を設定
+        Deadline deadline = Deadline.after(LOGIN_DEADLINE_MILLIS);
+        
         // リクエストパラメータの文字エンコーディングをUTF-8に設定
         request.setCharacterEncoding("UTF-8");
         
@@ -145,12 +221,22 @@ public class ControlServlet extends HttpServlet {
             // 入力が空の場合、エラーメッセージを設定
             request.setAttribute("error", "ユーザー名とパスワードを入力してください");
             // ログイン画面に戻る
-            request.getRequestDispatcher("/WEB-INF/views/login.jsp").forward(request, response);
+            forward(request, response, "/WEB-INF/views/login.jsp");
             return; // 処理を終了
         }
         
         // UserServiceを通じてユーザー認証を実行（ビジネスロジック層での処理）
-        User user = userService.authenticateUser(username, password);
+        User user;
+        try {
+            user = userService.authenticateUser(username, password, deadline);
+        } catch (DatabaseOverloadException e) {
+            // データベースが過負荷：スレッドを滞留させずに即座に503を返す
+            LOGGER.warning(String.format("ログイン処理を拒否しました（DB過負荷）: %s, IPアドレス=%s", 
+                e.getMessage(), request.getRemoteAddr()));
+            response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
         
         // 認証結果によって処理を分岐
         if (user != null) {
@@ -161,7 +247,10 @@ public class ControlServlet extends HttpServlet {
             // セッションにユーザー情報を保存
             session.setAttribute("user", user);
             // ログイン時刻を保存
-            session.setAttribute("loginTime", new java.util.Date());
+            Date loginTime = new Date();
+            session.setAttribute("loginTime", loginTime);
+            // 再起動後も復元できるようにセッションを永続化
+            persistSession(session, user, loginTime.getTime());
             
             // ログイン成功をロガーに記録（INFOレベル）
             LOGGER.info(String.format("ユーザーがログインしました: %s (ID: %d, セッションID: %s)", 
@@ -181,7 +270,7 @@ public class ControlServlet extends HttpServlet {
             // 入力したユーザー名を保持（再入力の手間を省く）
             request.setAttribute("username", username);
             // ログイン画面に戻る
-            request.getRequestDispatcher("/WEB-INF/views/login.jsp").forward(request, response);
+            forward(request, response, "/WEB-INF/views/login.jsp");
         }
     }
     
@@ -211,10 +300,16 @@ public class ControlServlet extends HttpServlet {
                 LOGGER.info(String.format("セッションが無効化されました: セッションID=%s", sessionId));
             }
             
+            // 永続化されたセッションを削除
+            userService.removeSession(sessionId);
+            
             // セッションを無効化（セッション内の全データを削除）
             session.invalidate();
         }
         
+        // 再起動前のセッションIDが送られてきた場合はそのレコードも削除
+        userService.removeSession(request.getRequestedSessionId());
+        
         // ログイン画面にリダイレクト
         response.sendRedirect(request.getContextPath() + "/app/login");
     }
@@ -234,6 +329,115 @@ public class ControlServlet extends HttpServlet {
         }
         
         // ホーム画面（JSP）を表示
-        request.getRequestDispatcher("/WEB-INF/views/home.jsp").forward(request, response);
+        forward(request, response, "/WEB-INF/views/home.jsp");
+    }
+    
+    /**
+     * 永続化されたセッションとコンテナのセッションを同期
+     * ログイン済みの場合は有効期限を延長し、再起動などでセッションが失われている場合は
+     * リクエストされたセッションIDでストアを検索して新しいセッションに復元します
+     */
+    private void syncPersistedSession(HttpServletRequest request) {
+        // ログイン済み：有効期限を延長
+        HttpSession session = request.getSession(false);
+        if (session != null && session.getAttribute("user") != null) {
+            userService.touchSession(session.getId(), expiresAt(session));
+            return;
+        }
+        
+        // セッションIDが送られていない、またはコンテナ上のセッションが有効な場合は復元不要
+        String requestedId = request.getRequestedSessionId();
+        if (requestedId == null || request.isRequestedSessionIdValid()) {
+            return;
+        }
+        
+        // 取り出しと削除を同時に行い、同じセッションIDで並行して復元されないようにする
+        UserService.SavedSession saved = userService.restoreSession(requestedId);
+        if (saved == null) {
+            return;
+        }
+        
+        // 新しいセッションにユーザー情報を復元し、レコードを新しいセッションIDで保存し直す
+        session = request.getSession(true);
+        session.setAttribute("user", saved.user());
+        session.setAttribute("loginTime", new Date(saved.loginTime()));
+        persistSession(session, saved.user(), saved.loginTime());
+        
+        LOGGER.info(String.format("セッションを復元しました: %s (ID: %d, 旧セッションID: %s, セッションID: %s)", 
+            saved.user().getUsername(), saved.user().getId(), requestedId, session.getId()));
+    }
+    
+    /**
+     * ログイン済みセッションをストアに保存
+     */
+    private void persistSession(HttpSession session, User user, long loginTime) {
+        userService.saveSession(session.getId(), user, loginTime, expiresAt(session));
+    }
+    
+    /**
+     * セッションの非アクティブ期間から永続化レコードの有効期限を計算
+     */
+    private static long expiresAt(HttpSession session) {
+        int maxInactive = session.getMaxInactiveInterval();
+        long ttl = maxInactive > 0 ? maxInactive * 1000L : DEFAULT_SESSION_TTL_MILLIS;
+        return System.currentTimeMillis() + ttl;
+    }
+    
+    /**
+     * JSPにフォワード
+     * JSPの描画時間をJFRのForwardEventとして記録します
+     */
+    private void forward(HttpServletRequest request, HttpServletResponse response, String view) 
+            throws ServletException, IOException {
+        ForwardEvent event = new ForwardEvent();
+        event.begin();
+        boolean completed = false;
+        try {
+            request.getRequestDispatcher(view).forward(request, response);
+            completed = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.route = RouteContext.get();
+                event.view = view;
+                event.outcome = completed ? "success" : "error";
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * リクエストのルートを取得（例: "/", "/app/login"）
+     * JFRイベントの値が際限なく増えたり、クライアントが送った文字列がそのまま記録されたりしないよう、
+     * 既知のルート以外は"/app/*"にまとめます
+     */
+    private static String routeOf(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.equals("/") || pathInfo.equals("")) {
+            return "/";
+        }
+        
+        return switch (pathInfo) {
+            case "/login" -> "/app/login";
+            case "/logout" -> "/app/logout";
+            case "/home" -> "/app/home";
+            default -> "/app/*";
+        };
+    }
+    
+    /**
+     * HTTPステータスコードから処理結果を判定
+     */
+    private static String outcomeOf(int status) {
+        if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+            return "rejected";
+        } else if (status >= 500) {
+            return "error";
+        } else if (status >= 400) {
+            return "client_error";
+        } else if (status >= 300) {
+            return "redirect";
+        }
+        return "success";
     }
 }
@@ -1,11 +1,20 @@
 package com.example.model.dao;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.example.monitoring.ConnectionAcquireEvent;
+import com.example.monitoring.RouteContext;
+
 /**
  * データベース接続を管理するクラス
  * 全てのDAOクラスで共通のデータベース接続を提供します
@@ -28,6 +37,16 @@ public class DatabaseManager {
     // データベース初期化済みフラグ
     private static boolean initialized = false;
     
+    // 初期化処理でのコネクション取得の処理期限（ミリ秒）
+    private static final long INITIALIZE_DEADLINE_MILLIS = 10000;
+    
+    // DB呼び出しの同時実行数を制限するバルクヘッド
+    // 初期上限10・下限1・上限20、待機は20スレッドまで最大100ミリ秒、500ミリ秒超の応答を遅延と見なす
+    private static final DbBulkhead BULKHEAD = new DbBulkhead(10, 1, 20, 20, 100, 500);
+    
+    // バルクヘッドの状態を公開するJMXのオブジェクト名
+    private static final String BULKHEAD_MBEAN_NAME = "com.example:type=DbBulkhead";
+    
     // 静的イニシャライザーでJDBCドライバーをロード
     static {
         try {
@@ -49,20 +68,81 @@ public class DatabaseManager {
     
     /**
      * データベース接続を取得
-     * ユーザー名とパスワードが設定されている場合はそれらを使用します
+     * 処理期限までの残り時間を接続ごとのタイムアウトとしてドライバーに渡します
      * 
+     * @param deadline 処理期限
      * @return データベースコネクション
      * @throws SQLException 接続エラー
+     * @throws DatabaseOverloadException 接続前に処理期限を過ぎている場合
      */
-    public static Connection getConnection() throws SQLException {
-        // ユーザー名とパスワードが設定されているかチェック
+    public static Connection getConnection(Deadline deadline) throws SQLException {
+        // コネクション取得時間をJFRのConnectionAcquireEventとして記録
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        event.begin();
+        String outcome = "error";
+        try {
+            // 処理期限を過ぎている場合は接続を試みずに即座に失敗させる
+            if (deadline.isExpired()) {
+                outcome = "rejected";
+                throw new DatabaseOverloadException("コネクション取得前に処理期限を超えました");
+            }
+            
+            Connection conn = DriverManager.getConnection(DB_URL, connectionProperties(deadline));
+            outcome = "success";
+            return conn;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.route = RouteContext.get();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * 接続用のプロパティを作成
+     * DriverManager.setLoginTimeoutはJVM全体に影響するため使用せず、
+     * 処理期限までの残り時間をドライバーごとの接続プロパティで指定します
+     * 
+     * @param deadline 処理期限
+     * @return 接続プロパティ
+     */
+    private static Properties connectionProperties(Deadline deadline) {
+        Properties props = new Properties();
+        
+        // ユーザー名とパスワードが設定されている場合のみ使用（PostgreSQL/MySQL用）
         if (DB_USER != null && DB_PASSWORD != null) {
-            // PostgreSQL/MySQL用: ユーザー名とパスワードを使用して接続
-            return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-        } else {
-            // SQLite用: 認証なしで接続
-            return DriverManager.getConnection(DB_URL);
+            props.setProperty("user", DB_USER);
+            props.setProperty("password", DB_PASSWORD);
+        }
+        
+        long remainingMillis = Math.max(1, deadline.remainingMillis());
+        if (DB_URL.startsWith("jdbc:postgresql:")) {
+            // PostgreSQL: 秒単位（0は無制限のため切り上げて最低1秒）
+            String seconds = String.valueOf(deadline.queryTimeoutSeconds());
+            props.setProperty("connectTimeout", seconds);
+            props.setProperty("loginTimeout", seconds);
+        } else if (DB_URL.startsWith("jdbc:mysql:")) {
+            // MySQL: ミリ秒単位
+            props.setProperty("connectTimeout", String.valueOf(remainingMillis));
+        } else if (DB_URL.startsWith("jdbc:sqlite:")) {
+            // SQLite: ロック解除待ちの上限（ミリ秒）
+            props.setProperty("busy_timeout", String.valueOf(remainingMillis));
         }
+        return props;
+    }
+    
+    /**
+     * DB呼び出しの実行枠を取得
+     * DAOはコネクションを取得する前にこのメソッドで実行枠を確保します
+     * 
+     * @param deadline 処理期限
+     * @return 実行枠（try-with-resources文で解放すること）
+     * @throws DatabaseOverloadException 実行枠を取得できない場合
+     */
+    public static DbBulkhead.Permit acquirePermit(Deadline deadline) {
+        return BULKHEAD.acquire(deadline);
     }
     
     /**
@@ -78,25 +158,66 @@ public class DatabaseManager {
         
         LOGGER.info("データベースマネージャー: 初期化を開始");
         
+        // バルクヘッドの状態をJMXで公開
+        // DBが遅延・停止して初期化に失敗した場合こそ監視が必要なため、接続テストより先に登録する
+        registerBulkheadMBean();
+        
         try {
             // データベース接続をテスト
-            try (Connection conn = getConnection()) {
+            Deadline deadline = Deadline.after(INITIALIZE_DEADLINE_MILLIS);
+            try (Connection conn = getConnection(deadline)) {
                 LOGGER.info("データベース接続テスト成功: " + conn.getMetaData().getDatabaseProductName());
             }
             
             // 各DAOの初期化を実行
-            UserDao.initializeTable();
+            UserDao.initializeTable(deadline);
             
             // 初期化完了フラグを立てる
             initialized = true;
             LOGGER.info("データベースマネージャー: 初期化が完了");
             
-        } catch (SQLException e) {
-            // データベース接続エラーをログに記録
+        } catch (SQLException | DatabaseOverloadException e) {
+            // データベース接続エラー（処理期限切れを含む）をログに記録
             LOGGER.log(Level.SEVERE, "データベース初期化エラー", e);
         }
     }
     
+    /**
+     * データベースの終了処理
+     * 再デプロイ時にクラスローダーが解放されるようJMXの登録を解除します
+     */
+    public static synchronized void shutdown() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(BULKHEAD_MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "バルクヘッドのJMX登録解除に失敗しました", e);
+        }
+        initialized = false;
+        LOGGER.info("データベースマネージャー: 終了処理が完了");
+    }
+    
+    /**
+     * バルクヘッドをJMXに登録
+     * 前回のデプロイで登録されたままのものがあれば置き換えます
+     */
+    private static void registerBulkheadMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(BULKHEAD_MBEAN_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(BULKHEAD, name);
+        } catch (JMException e) {
+            // メトリクスが公開できなくてもアプリケーションは継続
+            LOGGER.log(Level.WARNING, "バルクヘッドのJMX登録に失敗しました", e);
+        }
+    }
+    
     /**
      * データベース接続URLを取得（デバッグ用）
      * 
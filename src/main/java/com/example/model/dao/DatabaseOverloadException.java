@@ -0,0 +1,17 @@
+package com.example.model.dao;
+
+/**
+ * データベースが過負荷のため処理を受け付けられないことを示す例外
+ * 同時実行数の上限超過や処理期限切れの際にスローされ、コントローラーで503応答に変換されます
+ */
+public class DatabaseOverloadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    public DatabaseOverloadException(String message) {
+        super(message);
+    }
+    
+    public DatabaseOverloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.model.dao;
+
+import java.util.logging.Logger;
+
+/**
+ * DB呼び出しの同時実行数を制限するバルクヘッド
+ * データベースが遅延した際にリクエストスレッドがDAO内に滞留し続けないよう、
+ * 実行枠を取得できない呼び出しを短い待ち時間で拒否します
+ *
+ * 同時実行数の上限はAIMD（加算増加・乗算減少）で調整されます。
+ * 応答が速い間は上限を少しずつ引き上げ、タイムアウトや遅延を検知すると一気に引き下げます。
+ */
+public class DbBulkhead implements DbBulkheadMXBean {
+    // ログ出力用のロガーインスタンス
+    private static final Logger LOGGER = Logger.getLogger(DbBulkhead.class.getName());
+
+    // 遅延検知時に上限へ掛ける係数
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxWaiting;
+    private final long maxWaitMillis;
+    private final long latencyThresholdNanos;
+
+    // 以下の状態はthisで同期して更新する
+    private double limit;
+    private int inFlight = 0;
+    private int waiting = 0;
+    private long acquiredCount = 0;
+    private long rejectedCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * コンストラクタ
+     *
+     * @param initialLimit 同時実行数の初期上限
+     * @param minLimit 同時実行数の下限
+     * @param maxLimit 同時実行数の上限
+     * @param maxWaiting 実行枠の空き待ちを許可するスレッド数
+     * @param maxWaitMillis 実行枠の空き待ち時間の上限（ミリ秒）
+     * @param latencyThresholdMillis 遅延と見なす応答時間（ミリ秒）
+     */
+    public DbBulkhead(int initialLimit, int minLimit, int maxLimit,
+            int maxWaiting, long maxWaitMillis, long latencyThresholdMillis) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                "同時実行数の設定が不正です: initial=%d, min=%d, max=%d", initialLimit, minLimit, maxLimit));
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitMillis = maxWaitMillis;
+        this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000L;
+    }
+
+    /**
+     * 実行枠を取得
+     * 空きがない場合は処理期限と待ち時間の上限のうち短い方まで待機し、
+     * それでも取得できない場合は即座に拒否します
+     *
+     * @param deadline 処理期限
+     * @return 実行枠（try-with-resources文で解放すること）
+     * @throws DatabaseOverloadException 実行枠を取得できない場合
+     */
+    public Permit acquire(Deadline deadline) {
+        long waitNanos = Math.min(maxWaitMillis, deadline.remainingMillis()) * 1_000_000L;
+
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                // 待ち行列が一杯、または待つ時間がない場合は待たずに拒否
+                if (waiting >= maxWaiting || waitNanos <= 0) {
+                    throw reject("DB実行枠が不足しています");
+                }
+
+                long end = System.nanoTime() + waitNanos;
+                waiting++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        long remaining = end - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw reject("DB実行枠の待機がタイムアウトしました");
+                        }
+                        wait(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw reject("DB実行枠の待機中に割り込まれました");
+                } finally {
+                    waiting--;
+                }
+            }
+            inFlight++;
+            acquiredCount++;
+        }
+        return new Permit();
+    }
+
+    /**
+     * 拒否を記録して例外を生成
+     */
+    private DatabaseOverloadException reject(String message) {
+        rejectedCount++;
+        LOGGER.fine(String.format("%s (上限: %d, 実行中: %d, 待機中: %d)", message, (int) limit, inFlight, waiting));
+        return new DatabaseOverloadException(message);
+    }
+
+    /**
+     * 実行枠を解放し、応答時間に応じて上限を調整
+     *
+     * @param elapsedNanos DB呼び出しにかかった時間（ナノ秒）
+     * @param dropped タイムアウトなどで呼び出しが失敗した場合true
+     */
+    private synchronized void release(long elapsedNanos, boolean dropped) {
+        // 解放前の使用状況（待機中のスレッドも需要として数える）
+        boolean busy = (inFlight + waiting) * 2 >= (int) limit;
+        inFlight--;
+
+        if (dropped || elapsedNanos > latencyThresholdNanos) {
+            // 乗算減少：遅延を検知したら上限を一気に下げる
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            droppedCount++;
+        } else if (busy) {
+            // 加算増加：上限の半分以上を使っているときだけ上限を少しずつ上げる
+            // （アイドル時に上限が際限なく上がらないようにする）
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public synchronized int getWaiting() {
+        return waiting;
+    }
+
+    @Override
+    public synchronized long getAcquiredCount() {
+        return acquiredCount;
+    }
+
+    @Override
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * 取得した実行枠
+     * クローズ時に実行枠を解放し、経過時間を上限の調整に反映します
+     */
+    public final class Permit implements AutoCloseable {
+        private final long startNanos = System.nanoTime();
+        private boolean dropped = false;
+        private boolean released = false;
+
+        private Permit() {}
+
+        /**
+         * タイムアウトなどでDB呼び出しが失敗したことを記録
+         */
+        public void markDropped() {
+            dropped = true;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(System.nanoTime() - startNanos, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.model.dao;
+
+/**
+ * DbBulkheadの状態をJMXで公開するためのインターフェース
+ * JConsoleなどから com.example:type=DbBulkhead として参照できます
+ */
+public interface DbBulkheadMXBean {
+    /** 現在の同時実行数の上限 */
+    int getLimit();
+    
+    /** 実行中のDB呼び出し数 */
+    int getInFlight();
+    
+    /** 実行枠の空き待ちをしているスレッド数 */
+    int getWaiting();
+    
+    /** 実行枠を取得できた呼び出しの累計 */
+    long getAcquiredCount();
+    
+    /** 実行枠を取得できずに拒否された呼び出しの累計 */
+    long getRejectedCount();
+    
+    /** タイムアウトまたは遅延により上限を引き下げた回数の累計 */
+    long getDroppedCount();
+}
@@ -0,0 +1,53 @@
+package com.example.model.dao;
+
+/**
+ * リクエストごとの処理期限
+ * コネクション取得待ちやクエリタイムアウトの上限として使用します
+ */
+public final class Deadline {
+    // 期限（System.nanoTime()基準）
+    private final long deadlineNanos;
+    
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+    
+    /**
+     * 現在時刻から指定ミリ秒後を期限とするDeadlineを生成
+     * 
+     * @param millis 残り時間（ミリ秒）
+     * @return Deadline
+     */
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000L);
+    }
+    
+    /**
+     * 期限までの残り時間を取得
+     * 
+     * @return 残り時間（ミリ秒）、期限切れの場合は0
+     */
+    public long remainingMillis() {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+    
+    /**
+     * 期限切れかどうかを確認
+     * 
+     * @return 期限切れの場合true
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+    
+    /**
+     * JDBCのsetQueryTimeoutに渡す秒数を取得
+     * setQueryTimeoutは秒単位で0が無制限を意味するため、切り上げて最低1秒とします
+     * 
+     * @return クエリタイムアウト（秒）
+     */
+    public int queryTimeoutSeconds() {
+        long millis = remainingMillis();
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,566 @@
+package com.example.model.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import com.example.model.service.User;
+
+/**
+ * メモリマップドファイルを使用したセッション永続化ストア
+ * ログイン済みセッションを固定長スロットに保存し、再デプロイ後も復元できるようにします
+ *
+ * ファイルはヘッダー（64バイト）と固定長スロットの配列で構成されます。
+ * スロット配列そのものがセッションIDをキーとするオープンアドレス法（線形探索）のハッシュ表のため、
+ * 起動時にファイル全体を読み込む必要はなく、参照時に該当スロットだけを読み取ります。
+ *
+ * セッションIDはそれだけでログイン状態を引き継げる認証情報のため、ファイルにはSHA-256ダイジェストのみを保存し、
+ * ファイル自体も所有者だけが読み書きできる権限で作成します。
+ */
+public class SessionStore implements Closeable {
+    // ログ出力用のロガーインスタンス
+    private static final Logger LOGGER = Logger.getLogger(SessionStore.class.getName());
+
+    // セッションストアのファイルパス（webapp.dbと同じ場所に作成）
+    public static final String DEFAULT_FILE = "webapp-sessions.dat";
+
+    // デフォルトのスロット数（2のべき乗であること）
+    public static final int DEFAULT_SLOT_COUNT = 4096;
+
+    // 期限切れセッションの掃除間隔（秒）
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    // ストアファイルの権限（所有者のみ読み書き可能）
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+    // ファイルヘッダー
+    private static final int MAGIC = 0x53455353; // "SESS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+
+    // スロットの状態
+    private static final byte EMPTY = 0;    // 未使用（探索の終端）
+    private static final byte USED = 1;     // 有効なレコード
+    private static final byte DELETED = 2;  // 削除済み（探索は継続）
+    private static final byte WRITING = 3;  // 書き込み中（クラッシュ時は削除済みとして扱う）
+
+    // スロットのレイアウト（CRCはOFF_LOGIN_TIMEからデータ末尾までを対象とする）
+    private static final int SLOT_SIZE = 512;
+    private static final int OFF_STATE = 0;
+    private static final int OFF_CRC = 4;
+    private static final int OFF_EXPIRES_AT = 8;
+    private static final int OFF_LOGIN_TIME = 16;
+    private static final int OFF_USER_ID = 24;
+    private static final int OFF_KEY_LENGTH = 28;
+    private static final int OFF_DATA_LENGTH = 30;
+    private static final int OFF_SESSION_KEY = 32;
+    private static final int SESSION_KEY_SIZE = 32; // SHA-256
+    private static final int OFF_DATA = OFF_SESSION_KEY + SESSION_KEY_SIZE;
+    private static final int MAX_DATA = SLOT_SIZE - OFF_DATA;
+
+    /**
+     * 永続化されたセッション情報
+     *
+     * @param user ログインユーザー
+     * @param loginTime ログイン時刻（エポックミリ秒）
+     * @param expiresAt 有効期限（エポックミリ秒）
+     */
+    public record Entry(User user, long loginTime, long expiresAt) {}
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final ScheduledExecutorService sweeper;
+    private boolean closed = false;
+
+    private SessionStore(FileChannel channel, MappedByteBuffer buffer, int slotCount) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-store-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * セッションストアを開く
+     * ファイルが存在しない、または形式が異なる場合は新規に作成します
+     *
+     * @param file ストアファイルのパス
+     * @param slotCount スロット数（2のべき乗）
+     * @return セッションストア
+     * @throws IOException ファイル操作エラー
+     */
+    public static SessionStore open(Path file, int slotCount) throws IOException {
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("スロット数は2のべき乗である必要があります: " + slotCount);
+        }
+
+        long fileSize = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        FileChannel channel = openOwnerOnly(file);
+
+        try {
+            // 既存ファイルのヘッダーを検証し、互換性がなければ作り直す
+            boolean valid = channel.size() == fileSize && hasValidHeader(channel, slotCount);
+            if (!valid && channel.size() > 0) {
+                LOGGER.warning("セッションストアの形式が一致しないため再作成します: " + file);
+                channel.truncate(0);
+            }
+
+            // ファイル全体をマップ（新規領域はゼロ＝EMPTYで埋められる）
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (!valid) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, slotCount);
+                buffer.putInt(12, SLOT_SIZE);
+                buffer.force();
+            }
+
+            SessionStore store = new SessionStore(channel, buffer, slotCount);
+            store.sweeper.scheduleWithFixedDelay(store::sweepExpired,
+                SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            LOGGER.info(String.format("セッションストアを開きました: %s (スロット数: %d)", file, slotCount));
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * ストアファイルを所有者のみ読み書き可能な権限で開く
+     * POSIX権限に対応したファイルシステムでは、新規作成時だけでなく既存ファイルの権限も絞り込みます
+     */
+    private static FileChannel openOwnerOnly(Path file) throws IOException {
+        boolean posix = file.getFileSystem().supportedFileAttributeViews().contains("posix");
+        FileAttribute<?>[] attributes = posix
+            ? new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS)}
+            : new FileAttribute<?>[0];
+
+        FileChannel channel = FileChannel.open(file,
+            Set.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), attributes);
+        if (posix) {
+            try {
+                Files.setPosixFilePermissions(file, FILE_PERMISSIONS);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * ヘッダーがこのストアの形式と一致するか確認
+     */
+    private static boolean hasValidHeader(FileChannel channel, int slotCount) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(16);
+        channel.read(header, 0);
+        header.flip();
+        return header.remaining() == 16
+            && header.getInt() == MAGIC
+            && header.getInt() == VERSION
+            && header.getInt() == slotCount
+            && header.getInt() == SLOT_SIZE;
+    }
+
+    /**
+     * セッションを保存（同じセッションIDが存在する場合は上書き）
+     *
+     * @param sessionId セッションID
+     * @param user ログインユーザー
+     * @param loginTime ログイン時刻（エポックミリ秒）
+     * @param expiresAt 有効期限（エポックミリ秒）
+     * @return 保存できた場合true
+     */
+    public synchronized boolean save(String sessionId, User user, long loginTime, long expiresAt) {
+        if (closed) {
+            return false;
+        }
+
+        byte[] key = keyOf(sessionId);
+        byte[] data = encodeUser(user);
+        if (data == null || data.length > MAX_DATA) {
+            LOGGER.warning("セッションがスロットに収まらないため保存しません: ユーザーID=" + user.getId());
+            return false;
+        }
+
+        int slot = findSlotForWrite(key);
+        if (slot < 0) {
+            LOGGER.warning("セッションストアが満杯のため保存できません: ユーザーID=" + user.getId());
+            return false;
+        }
+
+        int base = offsetOf(slot);
+
+        // 書き込み中にクラッシュしても不完全なレコードが有効と見なされないよう、
+        // 状態をWRITINGにしてから本体を書き、最後にCRCとUSEDを書き込む
+        buffer.put(base + OFF_STATE, WRITING);
+        buffer.putLong(base + OFF_EXPIRES_AT, expiresAt);
+        buffer.putLong(base + OFF_LOGIN_TIME, loginTime);
+        buffer.putInt(base + OFF_USER_ID, user.getId());
+        buffer.putShort(base + OFF_KEY_LENGTH, (short) key.length);
+        buffer.putShort(base + OFF_DATA_LENGTH, (short) data.length);
+        buffer.put(base + OFF_SESSION_KEY, key);
+        buffer.put(base + OFF_DATA, data);
+        buffer.putInt(base + OFF_CRC, checksum(base, data.length));
+        buffer.put(base + OFF_STATE, USED);
+        return true;
+    }
+
+    /**
+     * セッションを検索
+     * 期限切れまたは破損したレコードは削除してnullを返します
+     *
+     * @param sessionId セッションID
+     * @return セッション情報、存在しない場合はnull
+     */
+    public synchronized Entry find(String sessionId) {
+        if (closed) {
+            return null;
+        }
+
+        int slot = indexOf(keyOf(sessionId));
+        return slot >= 0 ? readEntry(slot) : null;
+    }
+
+    /**
+     * セッションを取り出して削除
+     * 検索と削除を1回のロックで行うため、同じセッションIDで同時に呼び出されても
+     * セッション情報を受け取るのは1つの呼び出しだけです
+     *
+     * @param sessionId セッションID
+     * @return セッション情報、存在しない場合はnull
+     */
+    public synchronized Entry take(String sessionId) {
+        if (closed || sessionId == null) {
+            return null;
+        }
+
+        int slot = indexOf(keyOf(sessionId));
+        if (slot < 0) {
+            return null;
+        }
+
+        Entry entry = readEntry(slot);
+        if (entry != null) {
+            buffer.put(offsetOf(slot) + OFF_STATE, DELETED);
+        }
+        return entry;
+    }
+
+    /**
+     * スロットからセッション情報を読み取る
+     * 期限切れまたは破損したレコードは削除してnullを返します
+     * 呼び出し元でthisを同期していること
+     */
+    private Entry readEntry(int slot) {
+        int base = offsetOf(slot);
+        long expiresAt = buffer.getLong(base + OFF_EXPIRES_AT);
+        if (expiresAt < System.currentTimeMillis()) {
+            buffer.put(base + OFF_STATE, DELETED);
+            return null;
+        }
+
+        int dataLength = buffer.getShort(base + OFF_DATA_LENGTH);
+        if (dataLength < 0 || dataLength > MAX_DATA
+                || buffer.getInt(base + OFF_CRC) != checksum(base, dataLength)) {
+            LOGGER.warning("破損したセッションレコードを破棄します: スロット=" + slot);
+            buffer.put(base + OFF_STATE, DELETED);
+            return null;
+        }
+
+        byte[] data = new byte[dataLength];
+        buffer.get(base + OFF_DATA, data);
+        User user = decodeUser(buffer.getInt(base + OFF_USER_ID), data);
+        if (user == null) {
+            buffer.put(base + OFF_STATE, DELETED);
+            return null;
+        }
+        return new Entry(user, buffer.getLong(base + OFF_LOGIN_TIME), expiresAt);
+    }
+
+    /**
+     * セッションの有効期限を延長
+     * 有効期限はCRCの対象外のため、8バイトの書き込みのみで更新できます
+     *
+     * @param sessionId セッションID
+     * @param expiresAt 新しい有効期限（エポックミリ秒）
+     * @return 更新できた場合true
+     */
+    public synchronized boolean touch(String sessionId, long expiresAt) {
+        if (closed) {
+            return false;
+        }
+
+        int slot = indexOf(keyOf(sessionId));
+        if (slot < 0) {
+            return false;
+        }
+        buffer.putLong(offsetOf(slot) + OFF_EXPIRES_AT, expiresAt);
+        return true;
+    }
+
+    /**
+     * セッションを削除
+     *
+     * @param sessionId セッションID
+     */
+    public synchronized void remove(String sessionId) {
+        if (closed || sessionId == null) {
+            return;
+        }
+
+        int slot = indexOf(keyOf(sessionId));
+        if (slot >= 0) {
+            buffer.put(offsetOf(slot) + OFF_STATE, DELETED);
+        }
+    }
+
+    /**
+     * 期限切れのセッションを削除し、変更をディスクに書き出す
+     * 定期的にバックグラウンドスレッドから呼び出されます
+     *
+     * @return 削除したセッション数
+     */
+    public int sweepExpired() {
+        int removed;
+        synchronized (this) {
+            if (closed) {
+                return 0;
+            }
+            removed = removeExpiredSlots();
+        }
+
+        // ディスクへの書き出しは時間がかかるためロックの外で行う
+        // （force()は他スレッドの書き込みと並行して呼び出しても安全）
+        buffer.force();
+        if (removed > 0) {
+            LOGGER.info("期限切れセッションを削除しました: " + removed + "件");
+        }
+        return removed;
+    }
+
+    /**
+     * 期限切れのスロットを削除済みにし、不要になった削除済みスロットをEMPTYに戻す
+     * 呼び出し元でthisを同期していること
+     *
+     * @return 削除したセッション数
+     */
+    private int removeExpiredSlots() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = offsetOf(slot);
+            byte state = buffer.get(base + OFF_STATE);
+            if (state == USED && buffer.getLong(base + OFF_EXPIRES_AT) < now) {
+                buffer.put(base + OFF_STATE, DELETED);
+                removed++;
+            } else if (state == WRITING) {
+                // 前回のクラッシュで書き込みが中断されたレコード
+                buffer.put(base + OFF_STATE, DELETED);
+            }
+        }
+
+        // 直後のスロットがEMPTYの削除済みスロットは探索に不要なのでEMPTYに戻す
+        // （後ろから2周することで末尾から先頭への折り返しも処理する）
+        int mask = slotCount - 1;
+        for (int i = 2 * slotCount - 1; i >= 0; i--) {
+            int slot = i & mask;
+            int base = offsetOf(slot);
+            if (buffer.get(base + OFF_STATE) == DELETED
+                    && buffer.get(offsetOf((slot + 1) & mask) + OFF_STATE) == EMPTY) {
+                buffer.put(base + OFF_STATE, EMPTY);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * セッションストアを閉じる
+     * 変更をディスクに書き出し、掃除スレッドを停止します
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        sweeper.shutdownNow();
+
+        try {
+            buffer.force();
+            channel.close();
+            LOGGER.info("セッションストアを閉じました");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "セッションストアのクローズに失敗しました", e);
+        }
+    }
+
+    /**
+     * セッションIDに一致する有効なスロットを探索
+     *
+     * @return スロット番号、見つからない場合は-1
+     */
+    private int indexOf(byte[] key) {
+        int mask = slotCount - 1;
+        int start = hash(key) & mask;
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (start + i) & mask;
+            byte state = buffer.get(offsetOf(slot) + OFF_STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && matches(slot, key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 書き込み先のスロットを探索
+     * 同じセッションIDがあればそのスロット、なければ最初に見つかった空きスロットを返します
+     *
+     * @return スロット番号、満杯の場合は-1
+     */
+    private int findSlotForWrite(byte[] key) {
+        int mask = slotCount - 1;
+        int start = hash(key) & mask;
+        int firstFree = -1;
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (start + i) & mask;
+            byte state = buffer.get(offsetOf(slot) + OFF_STATE);
+            if (state == EMPTY) {
+                return firstFree >= 0 ? firstFree : slot;
+            }
+            if (state == USED) {
+                if (matches(slot, key)) {
+                    return slot;
+                }
+            } else if (firstFree < 0) {
+                firstFree = slot;
+            }
+        }
+        return firstFree;
+    }
+
+    /**
+     * スロットのセッションキーが一致するか確認
+     */
+    private boolean matches(int slot, byte[] key) {
+        int base = offsetOf(slot);
+        if (buffer.getShort(base + OFF_KEY_LENGTH) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(base + OFF_SESSION_KEY + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * レコードのチェックサムを計算（有効期限を除くヘッダーとデータが対象）
+     */
+    private int checksum(int base, int dataLength) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(base + OFF_LOGIN_TIME, OFF_DATA - OFF_LOGIN_TIME + dataLength));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * スロットのファイル内オフセットを計算
+     */
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * セッションIDからファイルに保存するキー（SHA-256ダイジェスト）を計算
+     * セッションIDそのものはファイルに書き込まない
+     */
+    private static byte[] keyOf(String sessionId) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(sessionId.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256はJava SEで必ず提供される
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * セッションキーからスロット探索の開始位置用のハッシュ値を計算
+     * ダイジェストの先頭4バイトを使用するため、再起動後も同じスロットを指します
+     */
+    private static int hash(byte[] key) {
+        return ByteBuffer.wrap(key).getInt();
+    }
+
+    /**
+     * ユーザー情報をバイト列に変換（パスワードは保存しない）
+     */
+    private static byte[] encodeUser(User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_DATA);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, user.getUsername());
+            writeString(out, user.getEmail());
+            writeString(out, user.getFullName());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "ユーザー情報の変換に失敗しました", e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * バイト列からユーザー情報を復元
+     */
+    private static User decodeUser(int userId, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return new User(userId, readString(in), readString(in), readString(in));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "ユーザー情報の復元に失敗しました", e);
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
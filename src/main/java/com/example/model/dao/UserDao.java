@@ -5,6 +5,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.example.model.service.User;
+import com.example.monitoring.QueryEvent;
+import com.example.monitoring.RouteContext;
 
 /**
  * ユーザーデータアクセスオブジェクト（DAO）クラス
@@ -17,10 +19,12 @@ public class UserDao {
     /**
      * usersテーブルを初期化（テーブル作成とサンプルデータ投入）
      * DatabaseManagerから呼び出されます
+     * 
+     * @param deadline 処理期限
      */
-    public static void initializeTable() {
+    public static void initializeTable(Deadline deadline) {
         // try-with-resources文で自動的にコネクションをクローズ
-        try (Connection conn = DatabaseManager.getConnection()) {
+        try (Connection conn = getConnection(deadline)) {
             // usersテーブルのCREATE文（テキストブロックを使用）
             String createTableSQL = """
                 CREATE TABLE IF NOT EXISTS users (
@@ -82,49 +86,104 @@ public class UserDao {
      * データベース接続を取得
      * DatabaseManagerを使用して接続を取得します
      * 
+     * @param deadline 処理期限
      * @return データベースコネクション
      * @throws SQLException 接続エラー
      */
-    private static Connection getConnection() throws SQLException {
+    private static Connection getConnection(Deadline deadline) throws SQLException {
         // DatabaseManagerから接続を取得
-        return DatabaseManager.getConnection();
+        return DatabaseManager.getConnection(deadline);
     }
     
     /**
      * ユーザー認証を実行
      * ユーザー名とパスワードでデータベースを検索します
+     * 実行枠を確保してから接続し、処理期限をクエリタイムアウトとして設定します
      * 
      * @param username ユーザー名
      * @param password パスワード
+     * @param deadline 処理期限
      * @return 認証成功時はUserオブジェクト、失敗時はnull
+     * @throws DatabaseOverloadException 実行枠を取得できない、または処理期限を超えた場合
      */
-    public static User authenticate(String username, String password) {
+    public static User authenticate(String username, String password, Deadline deadline) {
         // パラメータ化クエリでSQLインジェクション対策
         String sql = "SELECT id, username, email, full_name FROM users WHERE username = ? AND password = ?";
         
-        // try-with-resources文で自動的にリソースをクローズ
-        try (Connection conn = getConnection();
+        // try-with-resources文で自動的にリソースをクローズ（実行枠はコネクションの後に解放）
+        try (DbBulkhead.Permit permit = DatabaseManager.acquirePermit(deadline)) {
+            return findUser(sql, username, password, deadline, permit);
+        }
+    }
+    
+    /**
+     * 実行枠を確保した状態で認証クエリを実行
+     */
+    private static User findUser(String sql, String username, String password,
+            Deadline deadline, DbBulkhead.Permit permit) {
+        try (Connection conn = getConnection(deadline);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            // コネクション取得までに処理期限を過ぎた場合はクエリを実行しない
+            if (deadline.isExpired()) {
+                permit.markDropped();
+                throw new DatabaseOverloadException("コネクション取得中に処理期限を超えました");
+            }
+            
+            // 処理期限までの残り時間をクエリタイムアウトに設定
+            pstmt.setQueryTimeout(deadline.queryTimeoutSeconds());
+            
             // プレースホルダーに値を設定
             pstmt.setString(1, username);  // 1番目の?にユーザー名を設定
             pstmt.setString(2, password);  // 2番目の?にパスワードを設定
             
-            // クエリを実行して結果を取得
-            ResultSet rs = pstmt.executeQuery();
-            
-            // 結果が存在する場合（認証成功）
-            if (rs.next()) {
-                // 結果セットからUserオブジェクトを生成して返す
-                return new User(
-                    rs.getInt("id"),           // ユーザーID
-                    rs.getString("username"),   // ユーザー名
-                    rs.getString("email"),      // メールアドレス
-                    rs.getString("full_name")   // フルネーム
-                );
+            // クエリの実行時間をJFRのQueryEventとして記録
+            QueryEvent event = new QueryEvent();
+            event.begin();
+            String outcome = "error";
+            try {
+                // クエリを実行して結果を取得
+                ResultSet rs = pstmt.executeQuery();
+                
+                // 結果が存在する場合（認証成功）
+                if (rs.next()) {
+                    outcome = "found";
+                    // 結果セットからUserオブジェクトを生成して返す
+                    return new User(
+                        rs.getInt("id"),           // ユーザーID
+                        rs.getString("username"),   // ユーザー名
+                        rs.getString("email"),      // メールアドレス
+                        rs.getString("full_name")   // フルネーム
+                    );
+                }
+                outcome = "not_found";
+            } catch (SQLTimeoutException e) {
+                outcome = "timeout";
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.route = RouteContext.get();
+                    event.query = "users.authenticate";
+                    event.outcome = outcome;
+                    event.commit();
+                }
             }
             
+        } catch (DatabaseOverloadException e) {
+            // コネクション取得前に処理期限切れ：遅延として上限の調整に反映
+            permit.markDropped();
+            throw e;
+        } catch (SQLTimeoutException e) {
+            // クエリタイムアウト：データベースの遅延として扱う
+            permit.markDropped();
+            throw new DatabaseOverloadException("認証クエリがタイムアウトしました", e);
         } catch (SQLException e) {
+            // ドライバーによってはタイムアウトをSQLTimeoutException以外で通知するため期限で判定
+            if (deadline.isExpired()) {
+                permit.markDropped();
+                throw new DatabaseOverloadException("認証クエリが処理期限を超えました", e);
+            }
             // SQL実行エラーをログに記録
             LOGGER.log(Level.SEVERE, "認証エラー", e);
         }
@@ -1,7 +1,16 @@
 package com.example.model.service;
 
+import com.example.model.dao.DatabaseManager;
+import com.example.model.dao.DatabaseOverloadException;
+import com.example.model.dao.Deadline;
+import com.example.model.dao.SessionStore;
 import com.example.model.dao.UserDao;
+import com.example.monitoring.AuthenticationEvent;
+import com.example.monitoring.RouteContext;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -12,6 +21,17 @@ public class UserService {
     // ログ出力用のロガーインスタンス
     private static final Logger LOGGER = Logger.getLogger(UserService.class.getName());
     
+    // ログイン済みセッションを永続化するストア（開けなかった場合はnull）
+    private SessionStore sessionStore;
+    
+    /**
+     * 永続化されたログイン情報
+     * 
+     * @param user ログインユーザー
+     * @param loginTime ログイン時刻（エポックミリ秒）
+     */
+    public record SavedSession(User user, long loginTime) {}
+    
     /**
      * データベースを初期化
      * アプリケーション起動時に1度だけ実行されます
@@ -19,18 +39,102 @@ public class UserService {
     public void initializeDatabase() {
         LOGGER.info("ユーザーサービス: データベース初期化を開始");
         // DatabaseManagerを呼び出してデータベースを初期化
-        com.example.model.dao.DatabaseManager.initialize();
+        DatabaseManager.initialize();
         LOGGER.info("ユーザーサービス: データベース初期化が完了");
     }
     
+    /**
+     * データベースの終了処理
+     * アプリケーション停止時に1度だけ実行されます
+     */
+    public void shutdownDatabase() {
+        DatabaseManager.shutdown();
+    }
+    
+    /**
+     * セッションストアを開く
+     * 開けなかった場合もアプリケーションは継続し、セッションの永続化のみ無効になります
+     */
+    public void initializeSessionStore() {
+        try {
+            sessionStore = SessionStore.open(Path.of(SessionStore.DEFAULT_FILE), SessionStore.DEFAULT_SLOT_COUNT);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "セッションストアを開けません。セッションの永続化は無効です", e);
+        }
+    }
+    
+    /**
+     * セッションストアを閉じる
+     * 再デプロイや停止時に変更をディスクに書き出します
+     */
+    public void shutdownSessionStore() {
+        if (sessionStore != null) {
+            sessionStore.close();
+        }
+    }
+    
+    /**
+     * ログイン済みセッションを保存
+     * 
+     * @param sessionId セッションID
+     * @param user ログインユーザー
+     * @param loginTime ログイン時刻（エポックミリ秒）
+     * @param expiresAt 有効期限（エポックミリ秒）
+     */
+    public void saveSession(String sessionId, User user, long loginTime, long expiresAt) {
+        if (sessionStore != null) {
+            sessionStore.save(sessionId, user, loginTime, expiresAt);
+        }
+    }
+    
+    /**
+     * 保存されたセッションの有効期限を延長
+     * 
+     * @param sessionId セッションID
+     * @param expiresAt 新しい有効期限（エポックミリ秒）
+     */
+    public void touchSession(String sessionId, long expiresAt) {
+        if (sessionStore != null) {
+            sessionStore.touch(sessionId, expiresAt);
+        }
+    }
+    
+    /**
+     * 保存されたセッションを取り出す
+     * 取り出したレコードは削除されるため、同じセッションIDから復元できるのは1度だけです
+     * 
+     * @param sessionId 再起動前のセッションID
+     * @return ログイン情報、存在しないか期限切れの場合はnull
+     */
+    public SavedSession restoreSession(String sessionId) {
+        if (sessionStore == null) {
+            return null;
+        }
+        SessionStore.Entry entry = sessionStore.take(sessionId);
+        return entry != null ? new SavedSession(entry.user(), entry.loginTime()) : null;
+    }
+    
+    /**
+     * 保存されたセッションを削除
+     * 
+     * @param sessionId セッションID
+     */
+    public void removeSession(String sessionId) {
+        if (sessionStore != null) {
+            sessionStore.remove(sessionId);
+        }
+    }
+    
     /**
      * ユーザー認証を実行
      * 
      * @param username ユーザー名
      * @param password パスワード
+     * @param deadline 処理期限
      * @return 認証成功時はUserオブジェクト、失敗時はnull
+     * @throws com.example.model.dao.DatabaseOverloadException データベースが過負荷の場合
      */
-    public User authenticateUser(String username, String password) {
+    public User authenticateUser(String username, String password, Deadline deadline) {
         // 入力値の検証（ビジネスロジック層での追加チェック）
         if (username == null || username.trim().isEmpty()) {
             LOGGER.warning("ユーザーサービス: ユーザー名が空です");
@@ -44,7 +148,25 @@ public class UserService {
         
         // DAO層のUserDaoを使用して認証を実行
         LOGGER.info("ユーザーサービス: ユーザー認証を実行中 - ユーザー名: " + username);
-        User user = UserDao.authenticate(username, password);
+        // 認証処理をJFRのAuthenticationEventとして記録
+        AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
+        User user;
+        String outcome = "error";
+        try {
+            user = UserDao.authenticate(username, password, deadline);
+            outcome = user != null ? "success" : "failure";
+        } catch (DatabaseOverloadException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.route = RouteContext.get();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
         
         // 認証結果をログに記録
         if (user != null) {
@@ -0,0 +1,26 @@
+package com.example.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * UserServiceでのユーザー認証を記録するJFRイベント
+ */
+@Name("com.example.Authentication")
+@Label("Authentication")
+@Category({"Webapp", "Service"})
+@Description("UserServiceでのユーザー認証")
+@StackTrace(false)
+public class AuthenticationEvent extends Event {
+    @Label("Route")
+    @Description("リクエストのルート")
+    public String route;
+
+    @Label("Outcome")
+    @Description("処理結果")
+    public String outcome;
+}
@@ -0,0 +1,26 @@
+package com.example.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * データベースコネクションの取得を記録するJFRイベント
+ */
+@Name("com.example.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Webapp", "Database"})
+@Description("データベースコネクションの取得")
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+    @Label("Route")
+    @Description("リクエストのルート")
+    public String route;
+
+    @Label("Outcome")
+    @Description("処理結果")
+    public String outcome;
+}
@@ -0,0 +1,30 @@
+package com.example.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JSPへのフォワード（描画）を記録するJFRイベント
+ */
+@Name("com.example.Forward")
+@Label("JSP Forward")
+@Category({"Webapp", "Rendering"})
+@Description("JSPへのフォワード")
+@StackTrace(false)
+public class ForwardEvent extends Event {
+    @Label("Route")
+    @Description("リクエストのルート")
+    public String route;
+
+    @Label("View")
+    @Description("フォワード先のJSP")
+    public String view;
+
+    @Label("Outcome")
+    @Description("処理結果")
+    public String outcome;
+}
@@ -0,0 +1,30 @@
+package com.example.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * UserDaoでのクエリ実行を記録するJFRイベント
+ */
+@Name("com.example.Query")
+@Label("Query")
+@Category({"Webapp", "Database"})
+@Description("DAOでのクエリ実行")
+@StackTrace(false)
+public class QueryEvent extends Event {
+    @Label("Route")
+    @Description("リクエストのルート")
+    public String route;
+
+    @Label("Query")
+    @Description("クエリの識別名")
+    public String query;
+
+    @Label("Outcome")
+    @Description("処理結果")
+    public String outcome;
+}
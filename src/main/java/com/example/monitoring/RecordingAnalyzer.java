@@ -0,0 +1,130 @@
+package com.example.monitoring;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JFRの記録ファイルを集計するコマンドラインツール
+ * アプリケーション独自のイベントをフェーズ（イベント種別）とルート（HTTPメソッドを含む）ごとに集計し、
+ * 件数・レイテンシのパーセンタイル・処理結果の内訳を表示します
+ *
+ * 使い方: java -cp WEB-INF/classes com.example.monitoring.RecordingAnalyzer webapp.jfr
+ */
+public class RecordingAnalyzer {
+    // 集計対象のイベント名の接頭辞
+    private static final String EVENT_PREFIX = "com.example.";
+
+    /**
+     * フェーズとルートごとの集計結果
+     */
+    private static class Stats {
+        private final List<Long> durations = new ArrayList<>();
+        private final Map<String, Integer> outcomes = new TreeMap<>();
+
+        void add(long durationNanos, String outcome) {
+            durations.add(durationNanos);
+            outcomes.merge(outcome != null ? outcome : "-", 1, Integer::sum);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("使い方: java com.example.monitoring.RecordingAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+
+        Map<String, Map<String, Stats>> phases = analyze(Path.of(args[0]));
+        if (phases.isEmpty()) {
+            System.out.println("集計対象のイベントがありません: " + args[0]);
+            return;
+        }
+        print(phases);
+    }
+
+    /**
+     * 記録ファイルを読み込み、フェーズとルートごとに集計
+     *
+     * @param file JFRの記録ファイル
+     * @return フェーズ名 → ルート（"GET /app/login"のようにメソッドを含む）→ 集計結果
+     * @throws IOException 読み込みエラー
+     */
+    private static Map<String, Map<String, Stats>> analyze(Path file) throws IOException {
+        Map<String, Map<String, Stats>> phases = new TreeMap<>();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String name = event.getEventType().getName();
+                if (!name.startsWith(EVENT_PREFIX)) {
+                    continue;
+                }
+
+                String phase = name.substring(EVENT_PREFIX.length());
+                String route = event.hasField("route") ? event.getString("route") : null;
+                String method = event.hasField("method") ? event.getString("method") : null;
+                String outcome = event.hasField("outcome") ? event.getString("outcome") : null;
+                String label = route != null ? route : "-";
+                if (method != null) {
+                    // 同じルートでもGETとPOSTは処理内容が異なるため分けて集計する
+                    label = method + " " + label;
+                }
+                phases.computeIfAbsent(phase, k -> new TreeMap<>())
+                    .computeIfAbsent(label, k -> new Stats())
+                    .add(event.getDuration().toNanos(), outcome);
+            }
+        }
+        return phases;
+    }
+
+    /**
+     * 集計結果を表形式で出力
+     */
+    private static void print(Map<String, Map<String, Stats>> phases) {
+        String format = "%-18s %-22s %7s %9s %9s %9s %9s %9s  %s%n";
+        System.out.printf(format, "phase", "route", "count", "avg(ms)", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "outcomes");
+
+        for (Map.Entry<String, Map<String, Stats>> phase : phases.entrySet()) {
+            for (Map.Entry<String, Stats> route : phase.getValue().entrySet()) {
+                List<Long> durations = route.getValue().durations;
+                Collections.sort(durations);
+                long total = 0;
+                for (long duration : durations) {
+                    total += duration;
+                }
+
+                System.out.printf(format,
+                    phase.getKey(),
+                    route.getKey(),
+                    durations.size(),
+                    millis(total / durations.size()),
+                    millis(percentile(durations, 50)),
+                    millis(percentile(durations, 95)),
+                    millis(percentile(durations, 99)),
+                    millis(durations.get(durations.size() - 1)),
+                    route.getValue().outcomes);
+            }
+        }
+    }
+
+    /**
+     * ソート済みの値からパーセンタイルを取得（最近傍法）
+     */
+    private static long percentile(List<Long> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    /**
+     * ナノ秒をミリ秒の文字列に変換
+     */
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.monitoring;
+
+/**
+ * 処理中のリクエストのルートを保持するクラス
+ * サービス層やDAO層で発行するJFRイベントに、どのルートの処理かを記録するために使用します
+ */
+public final class RouteContext {
+    // スレッドごとの処理中ルート
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private RouteContext() {}
+    
+    /**
+     * 処理中のルートを設定
+     * 
+     * @param route ルート（例: "/app/login"）
+     */
+    public static void set(String route) {
+        CURRENT.set(route);
+    }
+    
+    /**
+     * 処理中のルートを取得
+     * 
+     * @return ルート、リクエスト処理外の場合はnull
+     */
+    public static String get() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * 処理中のルートをクリア
+     * スレッドはコンテナで再利用されるため、リクエスト終了時に必ず呼び出します
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ControlServletでのルート処理を記録するJFRイベント
+ */
+@Name("com.example.Route")
+@Label("Route")
+@Category({"Webapp", "HTTP"})
+@Description("ControlServletでのリクエスト処理")
+@StackTrace(false)
+public class RouteEvent extends Event {
+    @Label("Route")
+    @Description("リクエストのルート")
+    public String route;
+
+    @Label("Method")
+    @Description("HTTPメソッド")
+    public String method;
+
+    @Label("Status")
+    @Description("HTTPステータスコード")
+    public int status;
+
+    @Label("Outcome")
+    @Description("処理結果")
+    public String outcome;
+}
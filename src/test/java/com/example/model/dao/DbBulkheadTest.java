@@ -0,0 +1,167 @@
+package com.example.model.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * DbBulkheadのテスト
+ */
+public class DbBulkheadTest {
+    // 遅延と見なさない十分に長い応答時間（ミリ秒）
+    private static final long NO_LATENCY_LIMIT = 60000;
+
+    @Test
+    public void rejectsImmediatelyWhenWaitQueueIsFull() {
+        DbBulkhead bulkhead = new DbBulkhead(1, 1, 1, 0, 1000, NO_LATENCY_LIMIT);
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(permit);
+            long start = System.nanoTime();
+            try {
+                bulkhead.acquire(Deadline.after(10000));
+                fail("実行枠が取得できてしまった");
+            } catch (DatabaseOverloadException e) {
+                // 待ち行列が一杯なので待たずに拒否される
+                assertTrue((System.nanoTime() - start) / 1_000_000L < 500);
+            }
+        }
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void rejectsWhenWaitTimesOut() {
+        DbBulkhead bulkhead = new DbBulkhead(1, 1, 1, 1, 50, NO_LATENCY_LIMIT);
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(permit);
+            long start = System.nanoTime();
+            try {
+                bulkhead.acquire(Deadline.after(10000));
+                fail("実行枠が取得できてしまった");
+            } catch (DatabaseOverloadException e) {
+                assertTrue((System.nanoTime() - start) / 1_000_000L >= 40);
+            }
+        }
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getWaiting());
+    }
+
+    @Test
+    public void rejectsWithoutWaitingWhenDeadlineHasExpired() {
+        DbBulkhead bulkhead = new DbBulkhead(1, 1, 1, 1, 1000, NO_LATENCY_LIMIT);
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(permit);
+            try {
+                bulkhead.acquire(Deadline.after(-1));
+                fail("実行枠が取得できてしまった");
+            } catch (DatabaseOverloadException e) {
+                assertEquals(0, bulkhead.getWaiting());
+            }
+        }
+    }
+
+    @Test
+    public void waiterAcquiresPermitWhenReleased() throws InterruptedException {
+        DbBulkhead bulkhead = new DbBulkhead(1, 1, 1, 1, 5000, NO_LATENCY_LIMIT);
+        DbBulkhead.Permit held = bulkhead.acquire(Deadline.after(10000));
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            held.close();
+        });
+        releaser.start();
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(permit);
+            assertEquals(1, bulkhead.getInFlight());
+        }
+        releaser.join();
+        assertEquals(2, bulkhead.getAcquiredCount());
+        assertEquals(0, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void droppedCallsDecreaseLimitDownToMinimum() {
+        DbBulkhead bulkhead = new DbBulkhead(10, 2, 20, 0, 0, NO_LATENCY_LIMIT);
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            permit.markDropped();
+        }
+        assertEquals(9, bulkhead.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+                permit.markDropped();
+            }
+        }
+        assertEquals(2, bulkhead.getLimit());
+        assertEquals(51, bulkhead.getDroppedCount());
+    }
+
+    @Test
+    public void slowCallsDecreaseLimit() throws InterruptedException {
+        DbBulkhead bulkhead = new DbBulkhead(10, 1, 20, 0, 0, 1);
+
+        try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(permit);
+            Thread.sleep(10);
+        }
+        assertEquals(9, bulkhead.getLimit());
+        assertEquals(1, bulkhead.getDroppedCount());
+    }
+
+    @Test
+    public void limitDoesNotIncreaseWhileIdle() {
+        DbBulkhead bulkhead = new DbBulkhead(4, 1, 10, 0, 0, NO_LATENCY_LIMIT);
+
+        // 同時に1件しか実行しない（上限の半分未満）場合は上限を上げない
+        for (int i = 0; i < 50; i++) {
+            try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+                assertNotNull(permit);
+                assertEquals(1, bulkhead.getInFlight());
+            }
+        }
+        assertEquals(4, bulkhead.getLimit());
+    }
+
+    @Test
+    public void limitIncreasesWhileBusy() {
+        DbBulkhead bulkhead = new DbBulkhead(4, 1, 10, 0, 0, NO_LATENCY_LIMIT);
+
+        // 1件を実行中のまま別の呼び出しを繰り返す（上限の半分以上を使用）
+        try (DbBulkhead.Permit held = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(held);
+            // 1回あたり1/limitずつ増えるため、4から5になるには5回かかる
+            for (int i = 0; i < 5; i++) {
+                try (DbBulkhead.Permit permit = bulkhead.acquire(Deadline.after(10000))) {
+                    assertNotNull(permit);
+                    assertEquals(2, bulkhead.getInFlight());
+                }
+            }
+        }
+        assertEquals(5, bulkhead.getLimit());
+    }
+
+    @Test
+    public void limitDoesNotExceedMaximum() {
+        DbBulkhead bulkhead = new DbBulkhead(2, 1, 3, 0, 0, NO_LATENCY_LIMIT);
+
+        try (DbBulkhead.Permit held = bulkhead.acquire(Deadline.after(10000))) {
+            assertNotNull(held);
+            for (int i = 0; i < 100; i++) {
+                bulkhead.acquire(Deadline.after(10000)).close();
+            }
+        }
+        assertEquals(3, bulkhead.getLimit());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.model.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Deadlineのテスト
+ */
+public class DeadlineTest {
+
+    @Test
+    public void queryTimeoutSecondsRoundsUp() {
+        assertEquals(2, Deadline.after(1500).queryTimeoutSeconds());
+        assertEquals(3, Deadline.after(3000).queryTimeoutSeconds());
+    }
+
+    @Test
+    public void queryTimeoutSecondsIsAtLeastOne() {
+        // setQueryTimeout(0)は無制限を意味するため、残りわずかでも1秒とする
+        assertEquals(1, Deadline.after(1).queryTimeoutSeconds());
+        assertEquals(1, Deadline.after(0).queryTimeoutSeconds());
+        assertEquals(1, Deadline.after(-1000).queryTimeoutSeconds());
+    }
+
+    @Test
+    public void expiredDeadlineHasNoRemainingTime() {
+        Deadline deadline = Deadline.after(-100);
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.remainingMillis());
+    }
+
+    @Test
+    public void futureDeadlineIsNotExpired() {
+        Deadline deadline = Deadline.after(10000);
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remainingMillis() > 9000);
+    }
+}
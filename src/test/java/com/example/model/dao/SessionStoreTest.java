@@ -0,0 +1,239 @@
+package com.example.model.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.example.model.service.User;
+
+/**
+ * SessionStoreのテスト
+ */
+public class SessionStoreTest {
+    // ファイルレイアウト（SessionStoreの定義と一致させる）
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 512;
+    private static final int OFF_LOGIN_TIME = 16;
+    private static final byte WRITING = 3;
+
+    private static final long FAR_FUTURE = Long.MAX_VALUE;
+
+    private Path file;
+    private SessionStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("session-store", ".dat");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void saveReturnsFalseWhenTableIsFull() throws IOException {
+        store = SessionStore.open(file, 4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(store.save("session" + i, user(i), 1000L, FAR_FUTURE));
+        }
+
+        assertFalse(store.save("overflow", user(99), 1000L, FAR_FUTURE));
+
+        // 既存セッションの上書きは満杯でも可能
+        assertTrue(store.save("session0", user(42), 2000L, FAR_FUTURE));
+        assertEquals(42, store.find("session0").user().getId());
+    }
+
+    @Test
+    public void entriesLaterInProbeChainSurviveRemoveAndSweep() throws IOException {
+        store = SessionStore.open(file, 8);
+
+        // 最後のスロットに衝突するIDを使い、探索が先頭へ折り返すようにする
+        List<String> ids = idsForSlot(7, 8, 3);
+        for (int i = 0; i < ids.size(); i++) {
+            assertTrue(store.save(ids.get(i), user(i), 1000L, FAR_FUTURE));
+        }
+
+        // 探索チェーンの先頭を削除しても後続のエントリは見つかる
+        store.remove(ids.get(0));
+        store.sweepExpired();
+        assertNull(store.find(ids.get(0)));
+        assertNotNull(store.find(ids.get(1)));
+        assertNotNull(store.find(ids.get(2)));
+
+        // 末尾を削除して掃除（削除済みスロットのEMPTYへの圧縮）した後も残りは見つかる
+        store.remove(ids.get(2));
+        store.sweepExpired();
+        assertNull(store.find(ids.get(2)));
+        assertEquals(1, store.find(ids.get(1)).user().getId());
+    }
+
+    @Test
+    public void sweepRemovesExpiredEntries() throws IOException {
+        store = SessionStore.open(file, 8);
+        assertTrue(store.save("expired", user(1), 1000L, System.currentTimeMillis() - 1));
+        assertTrue(store.save("active", user(2), 1000L, FAR_FUTURE));
+
+        assertEquals(1, store.sweepExpired());
+        assertNull(store.find("expired"));
+        assertNotNull(store.find("active"));
+    }
+
+    @Test
+    public void saveOverwritesExistingEntryInsteadOfFirstFreeSlot() throws IOException {
+        store = SessionStore.open(file, 8);
+        List<String> ids = idsForSlot(3, 8, 2);
+        assertTrue(store.save(ids.get(0), user(0), 1000L, FAR_FUTURE));
+        assertTrue(store.save(ids.get(1), user(1), 1000L, FAR_FUTURE));
+
+        // 先頭を削除すると空きスロットが2番目のエントリより手前にできる
+        store.remove(ids.get(0));
+        assertTrue(store.save(ids.get(1), user(11), 2000L, FAR_FUTURE));
+        assertEquals(11, store.find(ids.get(1)).user().getId());
+
+        // 重複して保存されていなければ、残り7スロットがすべて使える
+        for (int i = 0; i < 7; i++) {
+            assertTrue(store.save("other" + i, user(100 + i), 1000L, FAR_FUTURE));
+        }
+        assertFalse(store.save("overflow", user(999), 1000L, FAR_FUTURE));
+    }
+
+    @Test
+    public void findReturnsSavedEntryAfterReopen() throws IOException {
+        store = SessionStore.open(file, 8);
+        assertTrue(store.save("session", new User(7, "user1", "user1@example.com", "山田太郎"), 1234L, FAR_FUTURE));
+        store.close();
+
+        store = SessionStore.open(file, 8);
+        SessionStore.Entry entry = store.find("session");
+        assertNotNull(entry);
+        assertEquals(7, entry.user().getId());
+        assertEquals("user1", entry.user().getUsername());
+        assertEquals("user1@example.com", entry.user().getEmail());
+        assertEquals("山田太郎", entry.user().getFullName());
+        assertEquals(1234L, entry.loginTime());
+    }
+
+    @Test
+    public void findReturnsNullWhenChecksumDoesNotMatch() throws IOException {
+        store = SessionStore.open(file, 1);
+        assertTrue(store.save("session", user(1), 1234L, FAR_FUTURE));
+        store.close();
+
+        // CRCの対象となるログイン時刻を書き換える
+        corrupt(HEADER_SIZE + OFF_LOGIN_TIME, (byte) 0x7f);
+
+        store = SessionStore.open(file, 1);
+        assertNull(store.find("session"));
+    }
+
+    @Test
+    public void findReturnsNullWhenSlotIsLeftWriting() throws IOException {
+        store = SessionStore.open(file, 1);
+        assertTrue(store.save("session", user(1), 1234L, FAR_FUTURE));
+        store.close();
+
+        // 書き込み途中でクラッシュした状態を再現する
+        corrupt(HEADER_SIZE, WRITING);
+
+        store = SessionStore.open(file, 1);
+        assertNull(store.find("session"));
+        assertTrue(store.save("session", user(2), 1234L, FAR_FUTURE));
+        assertEquals(2, store.find("session").user().getId());
+    }
+
+    @Test
+    public void takeReturnsEntryOnlyOnce() throws IOException {
+        store = SessionStore.open(file, 8);
+        assertTrue(store.save("session", user(1), 1234L, FAR_FUTURE));
+
+        SessionStore.Entry entry = store.take("session");
+        assertNotNull(entry);
+        assertEquals(1, entry.user().getId());
+        assertNull(store.take("session"));
+        assertNull(store.find("session"));
+    }
+
+    @Test
+    public void sessionIdIsNotWrittenToFile() throws IOException {
+        String sessionId = "0123456789ABCDEF0123456789ABCDEF";
+        store = SessionStore.open(file, 8);
+        assertTrue(store.save(sessionId, user(1), 1234L, FAR_FUTURE));
+        store.close();
+
+        String contents = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertFalse(contents.contains(sessionId));
+
+        store = SessionStore.open(file, 8);
+        assertNotNull(store.find(sessionId));
+    }
+
+    @Test
+    public void fileIsReadableByOwnerOnly() throws IOException {
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return;
+        }
+
+        // 既存ファイルの権限も絞り込まれる
+        Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-r--r--")));
+        store = SessionStore.open(file, 8);
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+
+    private static User user(int id) {
+        return new User(id, "user" + id, "user" + id + "@example.com", "ユーザー" + id);
+    }
+
+    /**
+     * 指定したスロットにハッシュされるセッションIDを生成
+     * SessionStoreと同じくSHA-256ダイジェストの先頭4バイトを使用する
+     */
+    private static List<String> idsForSlot(int slot, int slotCount, int count) {
+        List<String> ids = new ArrayList<>();
+        try {
+            for (int i = 0; ids.size() < count; i++) {
+                String id = "id" + i;
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+                if ((ByteBuffer.wrap(digest).getInt() & (slotCount - 1)) == slot) {
+                    ids.add(id);
+                }
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return ids;
+    }
+
+    /**
+     * ストアファイルの指定位置に1バイト書き込む
+     */
+    private void corrupt(long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {value}), position);
+        }
+    }
+}